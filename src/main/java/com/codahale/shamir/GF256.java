@@ -167,9 +167,13 @@ class GF256 {
   }
 
   static byte eval(byte[] p, byte x) {
+    return eval(p, 0, p.length, x);
+  }
+
+  static byte eval(byte[] p, int offset, int length, byte x) {
     // Horner's method
     byte result = 0;
-    for (int i = p.length - 1; i >= 0; i--) {
+    for (int i = offset + length - 1; i >= offset; i--) {
       result = add(mul(result, x), p[i]);
     }
     return result;
@@ -198,6 +202,18 @@ class GF256 {
     return p;
   }
 
+  static void generate(SecureRandom random, byte x, byte[] p) {
+    final int degree = p.length - 1;
+
+    // generate random polynomials until we find one of the given degree
+    do {
+      random.nextBytes(p);
+    } while (degree(p) != degree);
+
+    // set y intercept
+    p[0] = x;
+  }
+
   static byte interpolate(byte[][] points) {
     // calculate f(0) of the given points using Lagrangian interpolation
     final byte x = 0;
@@ -216,4 +232,20 @@ class GF256 {
     }
     return y;
   }
+
+  static void weights(byte[] xs, byte[] ws) {
+    // calculate the Lagrange basis polynomials at 0, such that f(0) = sum(ws[i] * ys[i])
+    final byte x = 0;
+    for (int i = 0; i < xs.length; i++) {
+      final byte aX = xs[i];
+      byte li = 1;
+      for (int j = 0; j < xs.length; j++) {
+        final byte bX = xs[j];
+        if (i != j) {
+          li = mul(li, div(sub(x, bX), sub(aX, bX)));
+        }
+      }
+      ws[i] = li;
+    }
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.security.auth.Destroyable;
+
+/**
+ * A split secret whose parts are generated on demand. Rather than evaluating and materializing all
+ * {@code N} parts up front, {@link LazyParts} holds the random polynomials which encode the secret
+ * and evaluates them only for the part IDs which are requested, so the cost of splitting scales
+ * with the number of parts actually issued.
+ *
+ * <p>The polynomial coefficients are as sensitive as the secret itself. Call {@link #destroy()} (or
+ * use a try-with-resources block) once all the needed parts have been issued to wipe them.
+ *
+ * @see Scheme#lazySplit(byte[])
+ */
+public final class LazyParts implements Destroyable, AutoCloseable {
+
+  private final int n;
+  private final int k;
+  private final int length;
+  // the coefficients of each byte's polynomial, k at a time
+  private final byte[] coefficients;
+  private boolean destroyed;
+
+  LazyParts(SecureRandom random, int n, int k, byte[] secret) {
+    this.n = n;
+    this.k = k;
+    this.length = secret.length;
+    this.coefficients = new byte[secret.length * k];
+    final byte[] p = Scratch.acquire(k);
+    try {
+      for (int i = 0; i < secret.length; i++) {
+        // for each byte, generate a random polynomial, p
+        GF256.generate(random, secret[i], p);
+        System.arraycopy(p, 0, coefficients, i * k, k);
+      }
+    } finally {
+      Scratch.release(p);
+    }
+  }
+
+  /**
+   * Generates the value of the given part.
+   *
+   * @param id the part ID (must be {@code >= 1} and {@code <= n})
+   * @return the part's value
+   * @throws IllegalArgumentException if {@code id} is out of range
+   * @throws IllegalStateException if the parts have been destroyed
+   */
+  public synchronized byte[] part(int id) {
+    checkState();
+    if (id < 1 || id > n) {
+      throw new IllegalArgumentException("Part ID must be >= 1 and <= N");
+    }
+    final byte[] value = new byte[length];
+    for (int i = 0; i < length; i++) {
+      // each part's byte is p(partId)
+      value[i] = GF256.eval(coefficients, i * k, k, (byte) id);
+    }
+    return value;
+  }
+
+  /**
+   * Generates the values of the given parts.
+   *
+   * @param ids the part IDs (each must be {@code >= 1} and {@code <= n})
+   * @return a map of the part IDs and their values
+   * @throws IllegalArgumentException if any ID is out of range
+   * @throws IllegalStateException if the parts have been destroyed
+   */
+  public synchronized Map<Integer, byte[]> parts(int... ids) {
+    checkState();
+    final Map<Integer, byte[]> parts = new HashMap<>(ids.length);
+    for (int id : ids) {
+      parts.put(id, part(id));
+    }
+    return Collections.unmodifiableMap(parts);
+  }
+
+  /**
+   * The number of parts which can be generated.
+   *
+   * @return {@code N}
+   */
+  public int n() {
+    return n;
+  }
+
+  /** Wipes the polynomial coefficients. No further parts can be generated. */
+  @Override
+  public synchronized void destroy() {
+    Arrays.fill(coefficients, (byte) 0);
+    destroyed = true;
+  }
+
+  @Override
+  public synchronized boolean isDestroyed() {
+    return destroyed;
+  }
+
+  /** Equivalent to {@link #destroy()}. */
+  @Override
+  public void close() {
+    destroy();
+  }
+
+  @Override
+  public String toString() {
+    return "LazyParts[n=" + n + ", k=" + k + ", destroyed=" + isDestroyed() + "]";
+  }
+
+  private void checkState() {
+    if (destroyed) {
+      throw new IllegalStateException("Parts have been destroyed");
+    }
+  }
+}
@@ -16,10 +16,12 @@
 package com.codahale.shamir;
 
 import java.security.SecureRandom;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.StringJoiner;
 
 /**
@@ -39,6 +41,7 @@ public class Scheme {
   private final SecureRandom random;
   private final int n;
   private final int k;
+  private final WeightCache cache;
 
   /**
    * Creates a new {@link Scheme} instance.
@@ -48,12 +51,26 @@ public class Scheme {
    * @param k the threshold of joinable parts (must be {@code <= n})
    */
   public Scheme(SecureRandom random, int n, int k) {
+    this(random, n, k, null);
+  }
+
+  /**
+   * Creates a new {@link Scheme} instance which caches the reconstruction weights of the sets of
+   * parts it joins.
+   *
+   * @param random a {@link SecureRandom} instance
+   * @param n the number of parts to produce (must be {@code >1})
+   * @param k the threshold of joinable parts (must be {@code <= n})
+   * @param cache a {@link WeightCache} instance, or {@code null} to disable caching
+   */
+  public Scheme(SecureRandom random, int n, int k, WeightCache cache) {
     this.random = random;
     checkArgument(k > 1, "K must be > 1");
     checkArgument(n >= k, "N must be >= K");
     checkArgument(n <= 255, "N must be <= 255");
     this.n = n;
     this.k = k;
+    this.cache = cache;
   }
 
   /**
@@ -66,13 +83,18 @@ public class Scheme {
   public Map<Integer, byte[]> split(byte[] secret) {
     // generate part values
     final byte[][] values = new byte[n][secret.length];
-    for (int i = 0; i < secret.length; i++) {
-      // for each byte, generate a random polynomial, p
-      final byte[] p = GF256.generate(random, k - 1, secret[i]);
-      for (int x = 1; x <= n; x++) {
-        // each part's byte is p(partId)
-        values[x - 1][i] = GF256.eval(p, (byte) x);
+    final byte[] p = Scratch.acquire(k);
+    try {
+      for (int i = 0; i < secret.length; i++) {
+        // for each byte, generate a random polynomial, p
+        GF256.generate(random, secret[i], p);
+        for (int x = 1; x <= n; x++) {
+          // each part's byte is p(partId)
+          values[x - 1][i] = GF256.eval(p, (byte) x);
+        }
       }
+    } finally {
+      Scratch.release(p);
     }
 
     // return as a set of objects
@@ -83,6 +105,18 @@ public class Scheme {
     return Collections.unmodifiableMap(parts);
   }
 
+  /**
+   * Splits the given secret without generating any parts. Parts are generated on demand by the
+   * returned {@link LazyParts}, and any {@code k} or more of them can be combined to recover the
+   * original secret.
+   *
+   * @param secret the secret to split
+   * @return a {@link LazyParts} which generates up to {@code n} parts
+   */
+  public LazyParts lazySplit(byte[] secret) {
+    return new LazyParts(random, n, k, secret);
+  }
+
   /**
    * Joins the given parts to recover the original secret.
    *
@@ -100,15 +134,104 @@ public class Scheme {
     final int[] lengths = parts.values().stream().mapToInt(v -> v.length).distinct().toArray();
     checkArgument(lengths.length == 1, "Varying lengths of part values");
     final byte[] secret = new byte[lengths[0]];
+    final byte[][] values = new byte[parts.size()][];
+    final byte[] xs = new byte[parts.size()];
+    final byte[] ws = new byte[parts.size()];
+    int j = 0;
+    for (Map.Entry<Integer, byte[]> part : parts.entrySet()) {
+      xs[j] = part.getKey().byteValue();
+      values[j] = part.getValue();
+      j++;
+    }
+
+    // the Lagrange terms depend only on the part IDs, so calculate them once for all bytes
+    weights(xs, ws);
+
     for (int i = 0; i < secret.length; i++) {
-      final byte[][] points = new byte[parts.size()][2];
-      int j = 0;
-      for (Map.Entry<Integer, byte[]> part : parts.entrySet()) {
-        points[j][0] = part.getKey().byteValue();
-        points[j][1] = part.getValue()[i];
-        j++;
+      byte y = 0;
+      for (j = 0; j < values.length; j++) {
+        y = GF256.add(y, GF256.mul(ws[j], values[j][i]));
+      }
+      secret[i] = y;
+    }
+    return secret;
+  }
+
+  /**
+   * Calculates the reconstruction weight of each part in a quorum. Combined with {@link
+   * #contribution(byte, byte[])} and {@link #combine(Collection)}, this allows the work of
+   * recovering a secret to be spread out: each part holder calculates their own contribution
+   * locally, and only the contributions are combined.
+   *
+   * <p><b>N.B.:</b> This does not keep parts secret from whoever combines the contributions.
+   * Weights are public and never zero, so a contribution can be divided by its weight to recover
+   * the part, and a contribution reveals exactly as much as the part itself. Part holders who need
+   * to hide their parts from the combiner must blind their contributions themselves (e.g. with
+   * pairwise random pads which XOR to zero across the quorum) before handing them over.
+   *
+   * <p>Weights depend only on the set of part IDs, so they can be shared openly.
+   *
+   * @param partIds the IDs of the parts which will be combined
+   * @return a map of part IDs to their reconstruction weights
+   * @throws IllegalArgumentException if {@code partIds} is empty or contains IDs which are not
+   *     {@code >= 1} and {@code <= 255}
+   */
+  public Map<Integer, Byte> weights(Set<Integer> partIds) {
+    checkArgument(partIds.size() > 0, "No parts provided");
+    final Integer[] ids = partIds.toArray(new Integer[0]);
+    final byte[] xs = new byte[ids.length];
+    final byte[] ws = new byte[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      checkArgument(ids[i] >= 1 && ids[i] <= 255, "Part IDs must be >= 1 and <= 255");
+      xs[i] = ids[i].byteValue();
+    }
+    weights(xs, ws);
+
+    final Map<Integer, Byte> weights = new HashMap<>(ids.length);
+    for (int i = 0; i < ids.length; i++) {
+      weights.put(ids[i], ws[i]);
+    }
+    return Collections.unmodifiableMap(weights);
+  }
+
+  /**
+   * Calculates a part's contribution to the recovery of a secret.
+   *
+   * <p><b>N.B.:</b> The part can be recovered from its contribution and weight, so contributions
+   * must be handled as carefully as the parts themselves.
+   *
+   * @param weight the part's reconstruction weight, as returned by {@link #weights(Set)}
+   * @param part the part's value
+   * @return the part's contribution
+   */
+  public static byte[] contribution(byte weight, byte[] part) {
+    final byte[] contribution = new byte[part.length];
+    for (int i = 0; i < part.length; i++) {
+      contribution[i] = GF256.mul(weight, part[i]);
+    }
+    return contribution;
+  }
+
+  /**
+   * Combines the contributions of every part in a quorum to recover the original secret.
+   *
+   * <p><b>N.B.:</b> As with {@link #join(Map)}, there is no way to determine whether or not the
+   * returned value is actually the original secret.
+   *
+   * @param contributions the contributions of each part in the quorum
+   * @return the original secret
+   * @throws IllegalArgumentException if {@code contributions} is empty or contains values of
+   *     varying lengths
+   */
+  public static byte[] combine(Collection<byte[]> contributions) {
+    checkArgument(contributions.size() > 0, "No contributions provided");
+    final int[] lengths = contributions.stream().mapToInt(v -> v.length).distinct().toArray();
+    checkArgument(lengths.length == 1, "Varying lengths of contributions");
+    final byte[] secret = new byte[lengths[0]];
+    for (byte[] contribution : contributions) {
+      for (int i = 0; i < secret.length; i++) {
+        secret[i] = GF256.add(secret[i], contribution[i]);
       }
-      secret[i] = GF256.interpolate(points);
     }
     return secret;
   }
@@ -131,6 +254,8 @@ public class Scheme {
     return k;
   }
 
+  // the weight cache is deliberately excluded from equals and hashCode, since it doesn't affect the
+  // results of splitting or joining
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -154,9 +279,18 @@ public class Scheme {
         .add("random=" + random)
         .add("n=" + n)
         .add("k=" + k)
+        .add("cache=" + cache)
         .toString();
   }
 
+  private void weights(byte[] xs, byte[] ws) {
+    if (cache != null) {
+      cache.weights(xs, ws);
+    } else {
+      GF256.weights(xs, ws);
+    }
+  }
+
   private static void checkArgument(boolean condition, String message) {
     if (!condition) {
       throw new IllegalArgumentException(message);
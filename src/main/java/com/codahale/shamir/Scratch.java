@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir;
+
+import java.util.Arrays;
+
+/**
+ * A thread-local scratch buffer for the polynomial coefficients generated while splitting a secret.
+ * The coefficients are as sensitive as the secret itself, so the buffer is zeroed when it is
+ * released rather than left on the heap until the next GC.
+ *
+ * <p>Each thread keeps a single free buffer, which is reused as long as the requested length (i.e.
+ * {@code K}) doesn't change. Buffers requested while the thread's buffer is already borrowed are
+ * freshly allocated, but are still zeroed on release.
+ *
+ * <p><b>N.B.:</b> Virtual threads each get their own thread-local buffer, which is discarded with
+ * the thread, so code which splits on short-lived virtual threads allocates a new {@code K}-byte
+ * buffer per thread. It is still zeroed before the thread finishes with it.
+ */
+final class Scratch {
+  private static final ThreadLocal<byte[][]> FREE = ThreadLocal.withInitial(() -> new byte[1][]);
+
+  private Scratch() {
+    // a singleton
+  }
+
+  /**
+   * Borrows a zeroed buffer of the given length. Callers must {@link #release(byte[])} it when
+   * done.
+   *
+   * @param length the length of the buffer
+   * @return a zeroed buffer of exactly {@code length} bytes
+   */
+  static byte[] acquire(int length) {
+    final byte[][] free = FREE.get();
+    final byte[] buf = free[0];
+    if (buf != null && buf.length == length) {
+      free[0] = null;
+      return buf;
+    }
+    return new byte[length];
+  }
+
+  /**
+   * Zeroes the given buffer and keeps it as the current thread's free buffer.
+   *
+   * @param buf a buffer previously returned by {@link #acquire(int)}
+   */
+  static void release(byte[] buf) {
+    Arrays.fill(buf, (byte) 0);
+    FREE.get()[0] = buf;
+  }
+}
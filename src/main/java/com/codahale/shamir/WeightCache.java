@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir;
+
+import static java.lang.Byte.toUnsignedInt;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of reconstruction weights, keyed by the set of part IDs being
+ * joined. If the same quorums are joined repeatedly, a {@link Scheme} with a {@link WeightCache}
+ * skips re-deriving the Lagrange terms for each join.
+ *
+ * <p>Reconstruction weights depend only on the part IDs, not on the part values or the secret, so a
+ * single cache can safely be shared between {@link Scheme} instances.
+ *
+ * <p>Eviction uses the CLOCK algorithm, an approximation of least-recently-used: each entry has a
+ * reference bit which a hit sets, and when the cache is full a clock hand sweeps the entries,
+ * clearing set bits and evicting the first entry whose bit is already clear. A hit only writes to
+ * the entry if its bit is clear, so threads repeatedly joining the same hot quorums share the entry
+ * read-only. Misses calculate the new weights without locking and then take a lock to insert them.
+ * A sweep is capped at two passes over the entries, after which the entry under the hand is evicted
+ * even if a concurrent hit has referenced it again, so inserting is {@code O(capacity)} in the
+ * worst case but amortized constant.
+ */
+public final class WeightCache {
+
+  private final int capacity;
+  private final Map<Key, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  // the clock, guarded by itself
+  private final Entry[] clock;
+  private int size;
+  private int hand;
+
+  /**
+   * Creates a new {@link WeightCache} instance.
+   *
+   * @param capacity the maximum number of part ID sets to cache (must be {@code >0})
+   */
+  public WeightCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be > 0");
+    }
+    this.capacity = capacity;
+    this.entries = new ConcurrentHashMap<>(capacity);
+    this.clock = new Entry[capacity];
+  }
+
+  /**
+   * The maximum number of part ID sets the cache will hold.
+   *
+   * @return the cache's capacity
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * The number of part ID sets currently cached.
+   *
+   * @return the cache's size
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * The number of joins whose weights were found in the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of joins whose weights had to be calculated.
+   *
+   * @return the number of cache misses
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /** Removes all cached weights. Hit and miss counts are not reset. */
+  public void clear() {
+    synchronized (clock) {
+      entries.clear();
+      Arrays.fill(clock, null);
+      size = 0;
+      hand = 0;
+    }
+  }
+
+  void weights(byte[] xs, byte[] ws) {
+    final Key key = Key.of(xs);
+    if (key == null) {
+      // duplicate part IDs don't form a set, so don't cache them
+      GF256.weights(xs, ws);
+      return;
+    }
+
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      hits.increment();
+      if (!entry.referenced) {
+        entry.referenced = true;
+      }
+    } else {
+      misses.increment();
+      entry = insert(new Entry(key, xs));
+    }
+
+    for (int i = 0; i < xs.length; i++) {
+      ws[i] = entry.weights[toUnsignedInt(xs[i])];
+    }
+  }
+
+  private Entry insert(Entry entry) {
+    synchronized (clock) {
+      final Entry existing = entries.get(entry.key);
+      if (existing != null) {
+        // another thread inserted it first
+        return existing;
+      }
+
+      if (size < capacity) {
+        clock[size++] = entry;
+      } else {
+        // give referenced entries a second chance, evicting the first unreferenced one; concurrent
+        // hits can set bits again behind the hand, so stop after two full sweeps regardless
+        for (int i = 0; i < 2 * capacity && clock[hand].referenced; i++) {
+          clock[hand].referenced = false;
+          hand = (hand + 1) % capacity;
+        }
+        entries.remove(clock[hand].key);
+        clock[hand] = entry;
+        hand = (hand + 1) % capacity;
+      }
+      entries.put(entry.key, entry);
+      return entry;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "WeightCache[capacity=" + capacity + ", size=" + size() + "]";
+  }
+
+  private static final class Entry {
+    private final Key key;
+    // weights indexed by part ID
+    private final byte[] weights = new byte[256];
+    private volatile boolean referenced;
+
+    private Entry(Key key, byte[] xs) {
+      this.key = key;
+      final byte[] ws = new byte[xs.length];
+      GF256.weights(xs, ws);
+      for (int i = 0; i < xs.length; i++) {
+        weights[toUnsignedInt(xs[i])] = ws[i];
+      }
+    }
+  }
+
+  private static final class Key {
+    private final long[] bits;
+
+    private Key(long[] bits) {
+      this.bits = bits;
+    }
+
+    static Key of(byte[] xs) {
+      final long[] bits = new long[4];
+      for (byte x : xs) {
+        final int i = toUnsignedInt(x);
+        final long mask = 1L << (i & 63);
+        if ((bits[i >>> 6] & mask) != 0) {
+          return null;
+        }
+        bits[i >>> 6] |= mask;
+      }
+      return new Key(bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && Arrays.equals(bits, ((Key) o).bits);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(bits);
+    }
+  }
+}
@@ -88,6 +88,11 @@ class GF256Test implements WithQuickTheories {
     assertThat(GF256.eval(new byte[] {1, 0, 2, 3}, (byte) 2)).isEqualTo((byte) 17);
   }
 
+  @Test
+  void evalSlice() {
+    assertThat(GF256.eval(new byte[] {9, 1, 0, 2, 3, 9}, 1, 4, (byte) 2)).isEqualTo((byte) 17);
+  }
+
   @Test
   void generate() {
     final SecureRandom random = new SecureRandom();
@@ -97,10 +102,33 @@ class GF256Test implements WithQuickTheories {
     assertThat(p[p.length - 1]).isNotZero();
   }
 
+  @Test
+  void generateInPlace() {
+    final SecureRandom random = new SecureRandom();
+    final byte[] p = new byte[6];
+    GF256.generate(random, (byte) 20, p);
+    assertThat(p[0]).isEqualTo((byte) 20);
+    assertThat(p[p.length - 1]).isNotZero();
+  }
+
   @Test
   void interpolate() {
     assertThat(GF256.interpolate(new byte[][] {{1, 1}, {2, 2}, {3, 3}})).isEqualTo((byte) 0);
     assertThat(GF256.interpolate(new byte[][] {{1, 80}, {2, 90}, {3, 20}})).isEqualTo((byte) 30);
     assertThat(GF256.interpolate(new byte[][] {{1, 43}, {2, 22}, {3, 86}})).isEqualTo((byte) 107);
   }
+
+  @Test
+  void weights() {
+    final byte[] xs = {1, 2, 3};
+    final byte[] ws = new byte[3];
+    GF256.weights(xs, ws);
+
+    final byte[] ys = {80, 90, 20};
+    byte y = 0;
+    for (int i = 0; i < ys.length; i++) {
+      y = GF256.add(y, GF256.mul(ws[i], ys[i]));
+    }
+    assertThat(y).isEqualTo((byte) 30);
+  }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ScratchTest {
+
+  @Test
+  void acquireReturnsZeroedBuffers() {
+    final byte[] buf = Scratch.acquire(10);
+    assertThat(buf).hasSize(10).containsOnly(0);
+    Scratch.release(buf);
+  }
+
+  @Test
+  void releaseWipesBuffers() {
+    final byte[] buf = Scratch.acquire(10);
+    buf[3] = 42;
+    Scratch.release(buf);
+    assertThat(buf).containsOnly(0);
+  }
+
+  @Test
+  void reusesReleasedBuffers() {
+    final byte[] a = Scratch.acquire(12);
+    Scratch.release(a);
+
+    final byte[] b = Scratch.acquire(12);
+    assertThat(b).isSameAs(a);
+    Scratch.release(b);
+  }
+
+  @Test
+  void doesNotShareBorrowedBuffers() {
+    final byte[] a = Scratch.acquire(12);
+    final byte[] b = Scratch.acquire(12);
+    assertThat(b).isNotSameAs(a);
+    Scratch.release(a);
+    Scratch.release(b);
+  }
+
+  @Test
+  void replacesBuffersOfOtherLengths() {
+    final byte[] a = Scratch.acquire(12);
+    Scratch.release(a);
+
+    final byte[] b = Scratch.acquire(13);
+    assertThat(b).hasSize(13).isNotSameAs(a);
+    Scratch.release(b);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class WeightCacheTest {
+
+  @Test
+  void capacityTooLow() {
+    assertThatThrownBy(() -> new WeightCache(0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void matchesUncachedWeights() {
+    final WeightCache cache = new WeightCache(4);
+    final byte[] xs = {7, 1, (byte) 200, 3};
+    final byte[] expected = new byte[xs.length];
+    GF256.weights(xs, expected);
+
+    final byte[] ws = new byte[xs.length];
+    cache.weights(xs, ws);
+    assertThat(ws).containsExactly(expected);
+
+    // a hit should produce the same weights, aligned with the given order
+    final byte[] reordered = {3, (byte) 200, 1, 7};
+    cache.weights(reordered, ws);
+    assertThat(ws).containsExactly(expected[3], expected[2], expected[1], expected[0]);
+
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    final WeightCache cache = new WeightCache(2);
+    final byte[] ws = new byte[2];
+    cache.weights(new byte[] {1, 2}, ws);
+    cache.weights(new byte[] {1, 3}, ws);
+    cache.weights(new byte[] {1, 2}, ws);
+    cache.weights(new byte[] {2, 3}, ws); // evicts {1, 3}
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.misses()).isEqualTo(3);
+
+    cache.weights(new byte[] {1, 2}, ws);
+    assertThat(cache.hits()).isEqualTo(2);
+
+    cache.weights(new byte[] {1, 3}, ws);
+    assertThat(cache.misses()).isEqualTo(4);
+  }
+
+  @Test
+  void doesNotCacheDuplicateIds() {
+    final WeightCache cache = new WeightCache(2);
+    final byte[] xs = {1, 1};
+    final byte[] expected = new byte[2];
+    GF256.weights(xs, expected);
+
+    final byte[] ws = new byte[2];
+    cache.weights(xs, ws);
+    assertThat(ws).containsExactly(expected);
+    assertThat(cache.size()).isZero();
+  }
+}
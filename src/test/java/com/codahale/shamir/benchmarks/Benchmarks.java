@@ -16,6 +16,7 @@
 package com.codahale.shamir.benchmarks;
 
 import com.codahale.shamir.Scheme;
+import com.codahale.shamir.WeightCache;
 import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.Map;
@@ -43,6 +44,7 @@ public class Benchmarks {
   private final int k = (n / 2) + 1;
   private byte[] secret = new byte[secretSize];
   private Scheme scheme = new Scheme(new SecureRandom(), n, k);
+  private Scheme cachedScheme = new Scheme(new SecureRandom(), n, k, new WeightCache(16));
   private Map<Integer, byte[]> parts = new HashMap<>();
 
   @Setup
@@ -62,4 +64,9 @@ public class Benchmarks {
   public byte[] join() {
     return scheme.join(parts);
   }
+
+  @Benchmark
+  public byte[] joinCached() {
+    return cachedScheme.join(parts);
+  }
 }
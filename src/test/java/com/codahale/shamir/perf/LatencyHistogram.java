@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir.perf;
+
+import java.io.PrintStream;
+
+/**
+ * A fixed-size, log-linear histogram of latencies, after the style of HdrHistogram. Values are
+ * recorded into buckets with {@value #SUB_BUCKET_BITS} bits of precision (i.e. within ~1.5% of the
+ * recorded value), so percentiles can be reported without keeping every sample.
+ *
+ * <p>Instances are not thread-safe; each thread should record into its own histogram and the
+ * results should be {@link #add(LatencyHistogram) merged} afterwards.
+ */
+class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int HALF = SUB_BUCKETS / 2;
+  private static final int MAGNITUDES = 64 - SUB_BUCKET_BITS;
+
+  private final long[] counts = new long[SUB_BUCKETS + MAGNITUDES * HALF];
+  private long total;
+  private long min = Long.MAX_VALUE;
+  private long max;
+  private double sum;
+
+  void record(long value) {
+    final long v = Math.max(0, value);
+    counts[index(v)]++;
+    total++;
+    sum += v;
+    min = Math.min(min, v);
+    max = Math.max(max, v);
+  }
+
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  long count() {
+    return total;
+  }
+
+  long min() {
+    return total == 0 ? 0 : min;
+  }
+
+  long max() {
+    return max;
+  }
+
+  double mean() {
+    return total == 0 ? 0 : sum / total;
+  }
+
+  long percentile(double p) {
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(p / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestEquivalentValue(i), max);
+      }
+    }
+    return max;
+  }
+
+  void print(PrintStream out, String name, double scale, String unit) {
+    out.printf(
+        "  %-10s n=%-10d min=%.1f mean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f p99.99=%.1f"
+            + " max=%.1f (%s)%n",
+        name,
+        total,
+        min() / scale,
+        mean() / scale,
+        percentile(50) / scale,
+        percentile(90) / scale,
+        percentile(99) / scale,
+        percentile(99.9) / scale,
+        percentile(99.99) / scale,
+        max() / scale,
+        unit);
+  }
+
+  private static int index(long v) {
+    if (v < SUB_BUCKETS) {
+      return (int) v;
+    }
+    final int magnitude = 64 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+    return SUB_BUCKETS + (magnitude - 1) * HALF + (int) ((v >>> magnitude) - HALF);
+  }
+
+  private static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    final int magnitude = (index - SUB_BUCKETS) / HALF + 1;
+    final long sub = (index - SUB_BUCKETS) % HALF + HALF;
+    return ((sub + 1) << magnitude) - 1;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2017 Coda Hale (coda.hale@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.codahale.shamir.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void empty() {
+    final LatencyHistogram h = new LatencyHistogram();
+
+    assertThat(h.count()).isZero();
+    assertThat(h.min()).isZero();
+    assertThat(h.max()).isZero();
+    assertThat(h.mean()).isZero();
+    assertThat(h.percentile(99)).isZero();
+  }
+
+  @Test
+  void smallValuesAreExact() {
+    final LatencyHistogram h = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      h.record(i);
+    }
+
+    assertThat(h.count()).isEqualTo(100);
+    assertThat(h.min()).isEqualTo(1);
+    assertThat(h.max()).isEqualTo(100);
+    assertThat(h.mean()).isEqualTo(50.5);
+    assertThat(h.percentile(50)).isEqualTo(50);
+    assertThat(h.percentile(99)).isEqualTo(99);
+    assertThat(h.percentile(100)).isEqualTo(100);
+  }
+
+  @Test
+  void percentilesAreWithinOnePercent() {
+    final Random random = new Random(1234);
+    final LatencyHistogram h = new LatencyHistogram();
+    final long[] values = new long[100_000];
+    for (int i = 0; i < values.length; i++) {
+      // log-uniform between 1us and 10s, in nanoseconds
+      values[i] = (long) Math.pow(10, 3 + random.nextDouble() * 7);
+      h.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double p : new double[] {1, 10, 50, 90, 99, 99.9, 99.99}) {
+      final long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+      assertThat((double) h.percentile(p)).isCloseTo(exact, within(exact * 0.01));
+    }
+    assertThat(h.percentile(100)).isEqualTo(values[values.length - 1]);
+  }
+
+  @Test
+  void addMergesHistograms() {
+    final LatencyHistogram a = new LatencyHistogram();
+    final LatencyHistogram b = new LatencyHistogram();
+    a.record(10);
+    a.record(1_000_000);
+    b.record(5);
+
+    a.add(b);
+
+    assertThat(a.count()).isEqualTo(3);
+    assertThat(a.min()).isEqualTo(5);
+    assertThat(a.max()).isEqualTo(1_000_000);
+    assertThat(a.percentile(50)).isEqualTo(10);
+  }
+}
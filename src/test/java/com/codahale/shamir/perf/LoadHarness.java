@@ -16,15 +16,328 @@
 package com.codahale.shamir.perf;
 
 import com.codahale.shamir.Scheme;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
+/**
+ * A multi-threaded load test for {@link Scheme}. Unlike the JMH benchmarks, this runs a mix of
+ * operations concurrently for a fixed duration and reports throughput, latency percentiles, and GC
+ * and allocation activity, which makes it useful for capacity planning and for checking how
+ * splitting and joining scale across cores.
+ *
+ * <p>Options are given as {@code key=value} arguments:
+ *
+ * <ul>
+ *   <li>{@code threads} — the number of worker threads (default: available processors)
+ *   <li>{@code virtual} — use virtual threads instead of platform threads (requires a JVM which
+ *       supports them; default: {@code false})
+ *   <li>{@code mix} — weighted operations, e.g. {@code split:1,join:4,roundtrip:0} (default: {@code
+ *       roundtrip:1})
+ *   <li>{@code sizes} — weighted secret sizes in bytes, e.g. {@code 32:10,1024:1} (default: {@code
+ *       10240:1})
+ *   <li>{@code n}, {@code k} — the scheme parameters (default: {@code 200}, {@code 20})
+ *   <li>{@code warmup}, {@code duration} — in seconds (default: {@code 10}, {@code 30})
+ * </ul>
+ */
 public class LoadHarness {
 
-  public static void main(String[] args) {
-    final byte[] secret = new byte[10 * 1024];
-    final Scheme scheme = new Scheme(new SecureRandom(), 200, 20);
-    for (int i = 0; i < 100_000_000; i++) {
-      scheme.join(scheme.split(secret));
+  private enum Op {
+    SPLIT,
+    JOIN,
+    ROUNDTRIP
+  }
+
+  public static void main(String[] args) throws Exception {
+    final Map<String, String> opts = new HashMap<>();
+    for (String arg : args) {
+      final int i = arg.indexOf('=');
+      if (i < 0) {
+        throw new IllegalArgumentException("Expected key=value, got: " + arg);
+      }
+      opts.put(arg.substring(0, i), arg.substring(i + 1));
+    }
+
+    final int threads =
+        Integer.parseInt(
+            opts.getOrDefault(
+                "threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+    final boolean virtual = Boolean.parseBoolean(opts.getOrDefault("virtual", "false"));
+    final int n = Integer.parseInt(opts.getOrDefault("n", "200"));
+    final int k = Integer.parseInt(opts.getOrDefault("k", "20"));
+    final long warmup = Long.parseLong(opts.getOrDefault("warmup", "10"));
+    final long duration = Long.parseLong(opts.getOrDefault("duration", "30"));
+    final Op[] ops =
+        weighted(
+            opts.getOrDefault("mix", "roundtrip:1"),
+            s -> Op.valueOf(s.toUpperCase(Locale.ROOT)),
+            Op[]::new);
+    final Integer[] sizes =
+        weighted(opts.getOrDefault("sizes", "10240:1"), Integer::valueOf, Integer[]::new);
+
+    final Scheme scheme = new Scheme(new SecureRandom(), n, k);
+
+    // pre-split one secret per size so joins measure only joining
+    final Map<Integer, byte[]> secrets = new HashMap<>();
+    final Map<Integer, Map<Integer, byte[]>> quorums = new HashMap<>();
+    for (Integer size : sizes) {
+      if (!secrets.containsKey(size)) {
+        final byte[] secret = new byte[size];
+        ThreadLocalRandom.current().nextBytes(secret);
+        final Map<Integer, byte[]> parts = new LinkedHashMap<>(scheme.split(secret));
+        final Iterator<Integer> ids = parts.keySet().iterator();
+        for (int i = 0; ids.hasNext(); i++) {
+          ids.next();
+          if (i >= k) {
+            ids.remove();
+          }
+        }
+        secrets.put(size, secret);
+        quorums.put(size, parts);
+      }
+    }
+
+    System.out.printf(
+        "threads=%d (%s) n=%d k=%d warmup=%ds duration=%ds mix=%s sizes=%s%n",
+        threads,
+        virtual ? "virtual" : "platform",
+        n,
+        k,
+        warmup,
+        duration,
+        opts.getOrDefault("mix", "roundtrip:1"),
+        opts.getOrDefault("sizes", "10240:1"));
+
+    final long start = System.nanoTime();
+    final long measureStart = start + TimeUnit.SECONDS.toNanos(warmup);
+    final long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(duration);
+
+    final ExecutorService executor = executor(threads, virtual);
+    final Worker[] workers = new Worker[threads];
+    final long[] gcBefore;
+    final long[] gcAfter;
+    try {
+      final List<Future<Worker>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                new Worker(scheme, ops, sizes, secrets, quorums, measureStart, measureEnd)));
+      }
+
+      // snapshot the GC beans once the warmup is over
+      sleepUntil(measureStart);
+      gcBefore = gcStats();
+      sleepUntil(measureEnd);
+
+      for (int t = 0; t < threads; t++) {
+        workers[t] = futures.get(t).get();
+      }
+      gcAfter = gcStats();
+    } finally {
+      // if a worker failed, stop the others so the pool's threads don't keep the JVM alive
+      executor.shutdownNow();
+    }
+
+    report(workers, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+  }
+
+  private static void report(Worker[] workers, long gcCount, long gcMillis) {
+    final Map<Op, LatencyHistogram> latencies = new LinkedHashMap<>();
+    final LatencyHistogram all = new LatencyHistogram();
+    long bytes = 0;
+    long allocated = 0;
+    boolean allocationSupported = true;
+    long started = Long.MAX_VALUE;
+    long finished = Long.MIN_VALUE;
+    for (Worker worker : workers) {
+      if (worker.started != Long.MAX_VALUE) {
+        // workers finish the operation in flight at the deadline, so use the times they measured
+        started = Math.min(started, worker.started);
+        finished = Math.max(finished, worker.finished);
+      }
+      for (Op op : Op.values()) {
+        latencies
+            .computeIfAbsent(op, o -> new LatencyHistogram())
+            .add(worker.latencies[op.ordinal()]);
+        all.add(worker.latencies[op.ordinal()]);
+      }
+      bytes += worker.bytes;
+      if (worker.allocated < 0) {
+        allocationSupported = false;
+      }
+      allocated += worker.allocated;
+    }
+
+    final double seconds = started < finished ? (finished - started) / 1e9 : Double.NaN;
+    System.out.printf("measured: %.3fs%n", seconds);
+    System.out.printf(
+        "throughput: %.1f ops/s, %.1f MiB/s%n", all.count() / seconds, bytes / seconds / (1 << 20));
+    System.out.println("latency:");
+    for (Map.Entry<Op, LatencyHistogram> e : latencies.entrySet()) {
+      if (e.getValue().count() > 0) {
+        e.getValue().print(System.out, e.getKey().name().toLowerCase(Locale.ROOT), 1_000, "us");
+      }
+    }
+    all.print(System.out, "all", 1_000, "us");
+    System.out.printf(
+        "gc: %d collections, %d ms (%.2f%% of wall time)%n",
+        gcCount, gcMillis, gcMillis / (seconds * 10));
+    if (allocationSupported) {
+      System.out.printf(
+          "allocation: %.1f MiB/s, %.1f KiB/op%n",
+          allocated / seconds / (1 << 20), all.count() == 0 ? 0 : allocated / 1024.0 / all.count());
+    } else {
+      System.out.println("allocation: not supported for these threads");
+    }
+  }
+
+  private static final class Worker implements Callable<Worker> {
+    private final Scheme scheme;
+    private final Op[] ops;
+    private final Integer[] sizes;
+    private final Map<Integer, byte[]> secrets;
+    private final Map<Integer, Map<Integer, byte[]>> quorums;
+    private final long measureStart;
+    private final long measureEnd;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Op.values().length];
+    private long bytes;
+    private long allocated;
+    private long started = Long.MAX_VALUE;
+    private long finished = Long.MIN_VALUE;
+
+    private Worker(
+        Scheme scheme,
+        Op[] ops,
+        Integer[] sizes,
+        Map<Integer, byte[]> secrets,
+        Map<Integer, Map<Integer, byte[]>> quorums,
+        long measureStart,
+        long measureEnd) {
+      this.scheme = scheme;
+      this.ops = ops;
+      this.sizes = sizes;
+      this.secrets = secrets;
+      this.quorums = quorums;
+      this.measureStart = measureStart;
+      this.measureEnd = measureEnd;
+      for (int i = 0; i < latencies.length; i++) {
+        latencies[i] = new LatencyHistogram();
+      }
+    }
+
+    @Override
+    public Worker call() {
+      final ThreadLocalRandom random = ThreadLocalRandom.current();
+      boolean measuring = false;
+      long allocatedBefore = 0;
+      while (true) {
+        final Op op = ops[random.nextInt(ops.length)];
+        final Integer size = sizes[random.nextInt(sizes.length)];
+        final long t0 = System.nanoTime();
+        if (t0 >= measureEnd) {
+          break;
+        }
+        if (!measuring && t0 >= measureStart) {
+          measuring = true;
+          started = t0;
+          allocatedBefore = allocatedBytes();
+        }
+
+        switch (op) {
+          case SPLIT:
+            scheme.split(secrets.get(size));
+            break;
+          case JOIN:
+            scheme.join(quorums.get(size));
+            break;
+          case ROUNDTRIP:
+            scheme.join(scheme.split(secrets.get(size)));
+            break;
+        }
+
+        if (measuring) {
+          finished = System.nanoTime();
+          latencies[op.ordinal()].record(finished - t0);
+          bytes += size;
+        }
+      }
+      final long allocatedAfter = allocatedBytes();
+      allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+      return this;
+    }
+  }
+
+  private static long allocatedBytes() {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+      if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  private static long[] gcStats() {
+    long count = 0;
+    long millis = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+      millis += Math.max(0, gc.getCollectionTime());
+    }
+    return new long[] {count, millis};
+  }
+
+  private static ExecutorService executor(int threads, boolean virtual) throws Exception {
+    if (virtual) {
+      // looked up reflectively so the harness still compiles for older JVMs
+      try {
+        return (ExecutorService)
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (NoSuchMethodException e) {
+        throw new UnsupportedOperationException("This JVM does not support virtual threads", e);
+      }
+    }
+    return Executors.newFixedThreadPool(threads);
+  }
+
+  private static void sleepUntil(long deadline) throws InterruptedException {
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      TimeUnit.NANOSECONDS.sleep(remaining);
+    }
+  }
+
+  private static <T> T[] weighted(
+      String spec, Function<String, T> parser, IntFunction<T[]> constructor) {
+    final List<T> values = new ArrayList<>();
+    for (String entry : spec.split(",")) {
+      final String[] pair = entry.split(":");
+      final T value = parser.apply(pair[0].trim());
+      final int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+      for (int i = 0; i < weight; i++) {
+        values.add(value);
+      }
+    }
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("No weighted values in: " + spec);
     }
+    return values.toArray(constructor.apply(0));
   }
 }
@@ -19,14 +19,19 @@ import static com.codahale.shamir.Generators.byteArrays;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.codahale.shamir.LazyParts;
 import com.codahale.shamir.Scheme;
+import com.codahale.shamir.WeightCache;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
@@ -92,6 +97,101 @@ class SchemeTest implements WithQuickTheories {
     assertThat(scheme.join(scheme.split(secret))).containsExactly(secret);
   }
 
+  @Test
+  void splitAndJoinWithWeightCache() {
+    final WeightCache cache = new WeightCache(2);
+    final Scheme scheme = new Scheme(new SecureRandom(), 5, 3, cache);
+    final byte[] secret = "hello there".getBytes(StandardCharsets.UTF_8);
+    final Map<Integer, byte[]> parts = scheme.split(secret);
+
+    assertThat(scheme.join(parts)).containsExactly(secret);
+    assertThat(scheme.join(parts)).containsExactly(secret);
+    assertThat(scheme.join(ImmutableMap.of(1, parts.get(1), 3, parts.get(3), 5, parts.get(5))))
+        .containsExactly(secret);
+    assertThat(scheme.join(ImmutableMap.of(5, parts.get(5), 3, parts.get(3), 1, parts.get(1))))
+        .containsExactly(secret);
+    assertThat(cache.hits()).isEqualTo(2);
+    assertThat(cache.misses()).isEqualTo(2);
+  }
+
+  @Test
+  void weightsEmptyParts() {
+    assertThatThrownBy(() -> new Scheme(new SecureRandom(), 3, 2).weights(Collections.emptySet()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void weightsInvalidPartIds() {
+    final Scheme scheme = new Scheme(new SecureRandom(), 3, 2);
+
+    assertThatThrownBy(() -> scheme.weights(ImmutableSet.of(0, 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> scheme.weights(ImmutableSet.of(1, 256)))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> scheme.weights(ImmutableSet.of(1, 257)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void combineEmptyContributions() {
+    assertThatThrownBy(() -> Scheme.combine(Collections.emptyList()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void combineIrregularContributions() {
+    assertThatThrownBy(() -> Scheme.combine(Arrays.asList(new byte[] {1}, new byte[] {1, 2})))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void splitAndCombineContributions() {
+    qt().forAll(integers().between(2, 5), integers().between(0, 5), byteArrays(1, 300))
+        .asWithPrecursor((k, extra, secret) -> new Scheme(new SecureRandom(), k + extra, k))
+        .check(
+            (k, e, secret, scheme) -> {
+              final Map<Integer, byte[]> parts = scheme.split(secret);
+              final Map<Integer, Byte> weights = scheme.weights(parts.keySet());
+              final List<byte[]> contributions = new ArrayList<>();
+              parts.forEach(
+                  (id, part) -> contributions.add(Scheme.contribution(weights.get(id), part)));
+              return Arrays.equals(Scheme.combine(contributions), secret);
+            });
+  }
+
+  @Test
+  void lazySplitAndJoin() {
+    final Scheme scheme = new Scheme(new SecureRandom(), 255, 3);
+    final byte[] secret = "hello there".getBytes(StandardCharsets.UTF_8);
+    try (LazyParts lazy = scheme.lazySplit(secret)) {
+      assertThat(lazy.n()).isEqualTo(255);
+      final Map<Integer, byte[]> parts = new HashMap<>(lazy.parts(1, 100));
+      parts.put(255, lazy.part(255));
+
+      assertThat(scheme.join(parts)).containsExactly(secret);
+      assertThat(lazy.part(100)).containsExactly(parts.get(100));
+    }
+  }
+
+  @Test
+  void lazySplitPartOutOfRange() {
+    final LazyParts lazy = new Scheme(new SecureRandom(), 5, 3).lazySplit(new byte[] {1});
+
+    assertThatThrownBy(() -> lazy.part(0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> lazy.part(6)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void lazySplitDestroyed() {
+    final LazyParts lazy = new Scheme(new SecureRandom(), 5, 3).lazySplit(new byte[] {1});
+    lazy.part(1);
+    lazy.destroy();
+
+    assertThat(lazy.isDestroyed()).isTrue();
+    assertThatThrownBy(() -> lazy.part(1)).isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(lazy::parts).isInstanceOf(IllegalStateException.class);
+  }
+
   @Test
   void splitAndJoinQuorate() {
     // All distinct subsets of parts of cardinality greater than or equal to the threshold should